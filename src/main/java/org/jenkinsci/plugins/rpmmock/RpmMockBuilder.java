@@ -12,6 +12,8 @@ import hudson.tasks.Builder;
 import hudson.util.FormValidation;
 import net.sf.json.JSONObject;
 import org.jenkinsci.plugins.rpmmock.cmdrunner.CommandRunner;
+import org.jenkinsci.plugins.rpmmock.publisher.BlobStore;
+import org.jenkinsci.plugins.rpmmock.publisher.ResultPublisher;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest;
@@ -50,11 +52,12 @@ public class RpmMockBuilder extends Builder {
     private final String configName;
     private final String srcRpmRegExp;
     private boolean uniqueMockPerBuild;
+    private boolean publishResults;
 
     private String configPath;
 
     @DataBoundConstructor
-    public RpmMockBuilder(String specFile, Boolean downloadSources, Boolean verbose, String configName, String srcRpmRegExp, Boolean uniqueMockPerBuild, String configPath ) {
+    public RpmMockBuilder(String specFile, Boolean downloadSources, Boolean verbose, String configName, String srcRpmRegExp, Boolean uniqueMockPerBuild, String configPath, Boolean publishResults ) {
         this.specFile = specFile;
         this.downloadSources = downloadSources;
         this.verbose = verbose;
@@ -62,6 +65,7 @@ public class RpmMockBuilder extends Builder {
         this.srcRpmRegExp = srcRpmRegExp;
         this.uniqueMockPerBuild = uniqueMockPerBuild;
         this.configPath = configPath;
+        this.publishResults = publishResults;
     }
 
     @Override
@@ -125,6 +129,16 @@ public class RpmMockBuilder extends Builder {
             return false;
         }
 
+        if( getPublishResults() ){
+            try {
+                new ResultPublisher( BlobStore.get(), listener ).publish( build, resultSRPMDir, resultRPMDir );
+            } catch (Exception e) {
+                logger.println("Publishing results fail due to: " + e.getMessage());
+                e.printStackTrace(logger);
+                return false;
+            }
+        }
+
         return true;
     }
 
@@ -222,6 +236,10 @@ public class RpmMockBuilder extends Builder {
         return uniqueMockPerBuild;
     }
 
+    public boolean getPublishResults() {
+        return publishResults;
+    }
+
     public String getFullConfigPath(FilePath workspace) {
         String configPathClean = configPath.trim();
         if( !configPathClean.isEmpty() ){
@@ -0,0 +1,231 @@
+package org.jenkinsci.plugins.rpmmock.publisher;
+
+import hudson.FilePath;
+import hudson.remoting.RemoteOutputStream;
+import jenkins.model.Jenkins;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Content addressed store of gzipped result files kept on the controller.
+ *
+ * <p>
+ * Every blob is named after the SHA-256 checksum of its uncompressed content and has a
+ * reference counter next to it. Each build manifest entry pointing at a blob holds one
+ * reference; the blob is removed when the last reference is released. {@link #sweep(Map, long)}
+ * resets the counters from the manifests that still exist, which covers builds removed
+ * without a release, e.g. together with their job.
+ */
+public class BlobStore {
+
+    private static final Logger LOGGER = Logger.getLogger(BlobStore.class.getName());
+
+    private static final Object LOCK = new Object();
+    private static final Pattern CHECKSUM_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+
+    private final File rootDir;
+
+    public BlobStore(File rootDir) {
+        this.rootDir = rootDir;
+    }
+
+    public static BlobStore get() {
+        return new BlobStore(new File(Jenkins.getInstance().getRootDir(), "rpmmock-blobs"));
+    }
+
+    public File getBlob(String checksum) {
+        return new File(getBlobDir(checksum), checksum + ".gz");
+    }
+
+    public boolean contains(String checksum) {
+        return getBlob(checksum).isFile();
+    }
+
+    /**
+     * Adds a reference to the blob with given checksum, transferring it from <tt>source</tt>
+     * only when the store doesn't have it yet.
+     *
+     * @return true if the file was transferred, false if an already stored blob was reused
+     */
+    public boolean add(String checksum, FilePath source) throws IOException, InterruptedException {
+        checkChecksum(checksum);
+        synchronized (LOCK) {
+            if( contains(checksum) ){
+                addReference(checksum);
+                return false;
+            }
+        }
+
+        File blobDir = getBlobDir(checksum);
+        blobDir.mkdirs();
+        File tmp = File.createTempFile(checksum, ".tmp", blobDir);
+        try {
+            transfer(source, tmp);
+            String transferred = ChecksumCallable.sha256(new GZIPInputStream(new FileInputStream(tmp)));
+            if( !checksum.equals(transferred) ){
+                throw new IOException("Checksum mismatch for " + source.getRemote() + ", expected " + checksum + " but got " + transferred);
+            }
+
+            synchronized (LOCK) {
+                File blob = getBlob(checksum);
+                if( !blob.isFile() && !tmp.renameTo(blob) ){
+                    throw new IOException("Can't move " + tmp + " to " + blob);
+                }
+                addReference(checksum);
+            }
+            return true;
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Drops one reference to the blob, removing it once nothing refers to it.
+     * A missing counter is left alone, as other manifests may still point at the blob.
+     */
+    public void release(String checksum) throws IOException {
+        checkChecksum(checksum);
+        synchronized (LOCK) {
+            int references = getReferences(checksum);
+            if( references <= 0 ){
+                LOGGER.warning("No references to release for blob " + checksum);
+                return;
+            }
+
+            references--;
+            if( references > 0 ){
+                setReferences(checksum, references);
+                return;
+            }
+
+            getRefsFile(checksum).delete();
+            File blob = getBlob(checksum);
+            if( blob.exists() && !blob.delete() ){
+                throw new IOException("Can't delete blob " + blob);
+            }
+        }
+    }
+
+    /**
+     * Sets every counter to the number of references found in existing manifests and removes
+     * the blobs nothing refers to. Blobs and temporary files touched after <tt>modifiedBefore</tt>
+     * are skipped, as they may belong to a publication the manifests don't show yet.
+     * The store is locked per blob only, so running publications are not held up by the walk.
+     */
+    public void sweep(Map<String, Integer> references, long modifiedBefore) {
+        File[] blobDirs = rootDir.listFiles();
+        if( blobDirs == null ){
+            return;
+        }
+
+        List<String> checksums = new ArrayList<String>();
+        for( File blobDir : blobDirs ){
+            File[] files = blobDir.listFiles();
+            if( files == null ){
+                continue;
+            }
+
+            for( File file : files ){
+                String name = file.getName();
+                if( name.endsWith(".tmp") ){
+                    if( file.lastModified() < modifiedBefore && !file.delete() ){
+                        LOGGER.warning("Can't delete stale temporary file " + file);
+                    }
+                } else if( name.endsWith(".gz") ){
+                    String checksum = name.substring(0, name.length() - ".gz".length());
+                    if( CHECKSUM_PATTERN.matcher(checksum).matches() ){
+                        checksums.add(checksum);
+                    }
+                }
+            }
+        }
+
+        for( String checksum : checksums ){
+            Integer count = references.get(checksum);
+            try {
+                synchronized (LOCK) {
+                    File blob = getBlob(checksum), refs = getRefsFile(checksum);
+                    if( !blob.isFile() || blob.lastModified() >= modifiedBefore || refs.lastModified() >= modifiedBefore ){
+                        continue;
+                    }
+
+                    if( count != null && count > 0 ){
+                        setReferences(checksum, count);
+                        continue;
+                    }
+
+                    LOGGER.info("Removing unreferenced blob " + checksum);
+                    refs.delete();
+                    if( !blob.delete() ){
+                        LOGGER.warning("Can't delete blob " + blob);
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Can't update reference counter of blob " + checksum, e);
+            }
+        }
+    }
+
+    public int getReferences(String checksum) throws IOException {
+        File refs = getRefsFile(checksum);
+        if( !refs.isFile() ){
+            return 0;
+        }
+        try {
+            return Integer.parseInt(FileUtils.readFileToString(refs).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupted reference counter " + refs, e);
+        }
+    }
+
+    /**
+     * Checksums come from the node running the build and name files on the controller,
+     * so anything but a SHA-256 hex digest is refused.
+     */
+    private static void checkChecksum(String checksum) throws IOException {
+        if( checksum == null || !CHECKSUM_PATTERN.matcher(checksum).matches() ){
+            throw new IOException("Invalid blob checksum '" + checksum + "'");
+        }
+    }
+
+    private void addReference(String checksum) throws IOException {
+        setReferences(checksum, getReferences(checksum) + 1);
+    }
+
+    private void setReferences(String checksum, int references) throws IOException {
+        FileUtils.writeStringToFile(getRefsFile(checksum), Integer.toString(references));
+    }
+
+    private File getRefsFile(String checksum) {
+        return new File(getBlobDir(checksum), checksum + ".refs");
+    }
+
+    private File getBlobDir(String checksum) {
+        return new File(rootDir, checksum.substring(0, 2));
+    }
+
+    private void transfer(FilePath source, File target) throws IOException, InterruptedException {
+        OutputStream out = new FileOutputStream(target);
+        try {
+            source.act(new CompressingCallable(new RemoteOutputStream(out)));
+            // writes through the remote stream arrive asynchronously, wait for them like FilePath.copyTo does
+            if( source.getChannel() != null ){
+                source.getChannel().syncLocalIO();
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.jenkinsci.plugins.rpmmock.publisher;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.remoting.VirtualChannel;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Computes SHA-256 checksums of the files in a result directory, on the node holding it,
+ * so only the checksums travel to the controller.
+ */
+public class ChecksumCallable implements FilePath.FileCallable<Map<String, String>> {
+    private static final long serialVersionUID = 1L;
+
+    private final String fileRegExp;
+
+    public ChecksumCallable(String fileRegExp) {
+        this.fileRegExp = fileRegExp;
+    }
+
+    public Map<String, String> invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+        Map<String, String> checksums = new TreeMap<String, String>();
+        Pattern pattern = Pattern.compile(fileRegExp);
+        File[] files = dir.listFiles();
+        if( files == null ){
+            return checksums;
+        }
+
+        for( File file : files ){
+            if( file.isFile() && pattern.matcher(file.getName()).find() ){
+                checksums.put(file.getName(), sha256(new FileInputStream(file)));
+            }
+        }
+        return checksums;
+    }
+
+    /**
+     * Reads the stream to its end, closes it and returns its hex encoded SHA-256 digest.
+     */
+    public static String sha256(InputStream in) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while( (read = in.read(buffer)) != -1 ){
+                digest.update(buffer, 0, read);
+            }
+            return Util.toHexString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available", e);
+        } finally {
+            in.close();
+        }
+    }
+}
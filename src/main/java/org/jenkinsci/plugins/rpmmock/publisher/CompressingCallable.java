@@ -0,0 +1,40 @@
+package org.jenkinsci.plugins.rpmmock.publisher;
+
+import hudson.FilePath;
+import hudson.remoting.RemoteOutputStream;
+import hudson.remoting.VirtualChannel;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a file gzipped, on the node holding it, into an output stream exported by the controller,
+ * so the transfer carries compressed data without any intermediate file.
+ */
+public class CompressingCallable implements FilePath.FileCallable<Void> {
+    private static final long serialVersionUID = 1L;
+
+    private final RemoteOutputStream out;
+
+    public CompressingCallable(RemoteOutputStream out) {
+        this.out = out;
+    }
+
+    public Void invoke(File file, VirtualChannel channel) throws IOException, InterruptedException {
+        InputStream in = new FileInputStream(file);
+        try {
+            OutputStream gzip = new GZIPOutputStream(out);
+            IOUtils.copy(in, gzip);
+            gzip.close();
+        } finally {
+            in.close();
+            out.close();
+        }
+        return null;
+    }
+}
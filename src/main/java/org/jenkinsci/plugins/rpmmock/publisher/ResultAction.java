@@ -0,0 +1,117 @@
+package org.jenkinsci.plugins.rpmmock.publisher;
+
+import hudson.model.Action;
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Manifest of RPMs published by a build. Each entry links a result path to a blob
+ * in the {@link BlobStore}, which serves the file back when it is downloaded.
+ * All mock build steps of a build share a single manifest.
+ */
+public class ResultAction implements Action {
+
+    private final List<Entry> entries = new ArrayList<Entry>();
+
+    public synchronized List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<Entry>(entries));
+    }
+
+    /**
+     * Adds the entry, replacing the one with the same path if present.
+     *
+     * @return the replaced entry or null
+     */
+    public synchronized Entry putEntry(Entry entry) {
+        Entry replaced = getEntry(entry.getPath());
+        if( replaced != null ){
+            entries.remove(replaced);
+        }
+        entries.add(entry);
+        return replaced;
+    }
+
+    public synchronized Entry getEntry(String path) {
+        for( Entry entry : entries ){
+            if( entry.getPath().equals(path) ){
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public String getIconFileName() {
+        return "package.png";
+    }
+
+    public String getDisplayName() {
+        return "Mock results";
+    }
+
+    public String getUrlName() {
+        return "rpmmock-results";
+    }
+
+    public void doDynamic(StaplerRequest req, StaplerResponse rsp) throws IOException, ServletException {
+        String path = req.getRestOfPath();
+        if( path.startsWith("/") ){
+            path = path.substring(1);
+        }
+
+        Entry entry = getEntry(path);
+        File blob = entry == null ? null : BlobStore.get().getBlob(entry.getChecksum());
+        if( blob == null || !blob.isFile() ){
+            rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        rsp.setContentType("application/x-rpm");
+        // names are validated on publishing, quote them defensively anyway
+        String filename = entry.getName().replaceAll("[\"\\\\\r\n]", "_");
+        rsp.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+        InputStream in = new GZIPInputStream(new FileInputStream(blob));
+        try {
+            IOUtils.copy(in, rsp.getOutputStream());
+        } finally {
+            in.close();
+        }
+    }
+
+    public static class Entry {
+        private final String path;
+        private final String checksum;
+
+        public Entry(String path, String checksum) {
+            this.path = path;
+            this.checksum = checksum;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getDirectory() {
+            return path.substring(0, Math.max(path.lastIndexOf('/'), 0));
+        }
+
+        public String getName() {
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+
+        public String getChecksum() {
+            return checksum;
+        }
+    }
+}
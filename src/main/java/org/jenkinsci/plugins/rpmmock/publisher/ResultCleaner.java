@@ -0,0 +1,44 @@
+package org.jenkinsci.plugins.rpmmock.publisher;
+
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Releases blob references held by a build manifest when the build is deleted.
+ * References of builds removed along with their job are collected by {@link ResultSweeper}.
+ */
+@Extension
+public class ResultCleaner extends RunListener<Run> {
+
+    private static final Logger LOGGER = Logger.getLogger(ResultCleaner.class.getName());
+
+    public ResultCleaner() {
+        super(Run.class);
+    }
+
+    @Override
+    public void onDeleted(Run run) {
+        List<ResultAction> actions = run.getActions(ResultAction.class);
+        if( !actions.isEmpty() ){
+            release(actions, BlobStore.get());
+        }
+    }
+
+    static void release(List<ResultAction> actions, BlobStore store) {
+        for( ResultAction action : actions ){
+            for( ResultAction.Entry entry : action.getEntries() ){
+                try {
+                    store.release(entry.getChecksum());
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Can't release blob " + entry.getChecksum(), e);
+                }
+            }
+        }
+    }
+}
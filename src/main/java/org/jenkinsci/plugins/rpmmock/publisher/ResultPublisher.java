@@ -0,0 +1,83 @@
+package org.jenkinsci.plugins.rpmmock.publisher;
+
+import hudson.FilePath;
+import hudson.model.Actionable;
+import hudson.model.BuildListener;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Publishes RPMs from mock result directories to the {@link BlobStore}.
+ *
+ * <p>
+ * Checksums are computed on the node running the build, files already present in the store
+ * are only referenced, the missing ones are transferred gzipped. Published files are recorded
+ * in the {@link ResultAction} of the build as they go, so a failure part way still leaves
+ * every taken reference in the manifest.
+ */
+public class ResultPublisher {
+
+    public static final String RPM_FILE_REGEXP = "\\.rpm$";
+
+    /**
+     * Characters allowed in RPM file names. Names come from the node running the build and
+     * end up in the results page and download headers, anything else is not published.
+     */
+    private static final Pattern FILE_NAME_PATTERN = Pattern.compile("^[A-Za-z0-9._+~^-]+$");
+
+    private final BlobStore store;
+    private final PrintStream logger;
+
+    public ResultPublisher(BlobStore store, BuildListener listener) {
+        this.store = store;
+        this.logger = listener.getLogger();
+    }
+
+    public void publish(Actionable build, FilePath... resultDirs) throws IOException, InterruptedException {
+        ResultAction action = build.getAction(ResultAction.class);
+        int published = 0, transferred = 0;
+
+        for( FilePath resultDir : resultDirs ){
+            if( !resultDir.isDirectory() ){
+                continue;
+            }
+
+            Map<String, String> checksums = resultDir.act(new ChecksumCallable(RPM_FILE_REGEXP));
+            for( Map.Entry<String, String> checksum : checksums.entrySet() ){
+                String path = resultDir.getName() + "/" + checksum.getKey();
+                if( !FILE_NAME_PATTERN.matcher(checksum.getKey()).matches() ){
+                    logger.println("Skipping " + path + ", unsupported characters in file name");
+                    continue;
+                }
+
+                ResultAction.Entry existing = action == null ? null : action.getEntry(path);
+                if( existing != null && existing.getChecksum().equals(checksum.getValue()) ){
+                    // already published by an earlier mock step of this build
+                    continue;
+                }
+
+                if( store.add(checksum.getValue(), resultDir.child(checksum.getKey())) ){
+                    transferred++;
+                } else {
+                    logger.println("Skipping transfer of " + path + ", already stored as " + checksum.getValue());
+                }
+
+                if( action == null ){
+                    // attached with the first entry, so builds without RPMs get no empty page
+                    action = new ResultAction();
+                    build.addAction(action);
+                }
+                ResultAction.Entry replaced = action.putEntry(new ResultAction.Entry(path, checksum.getValue()));
+                if( replaced != null ){
+                    store.release(replaced.getChecksum());
+                }
+                published++;
+            }
+        }
+
+        logger.println("Published " + published + " RPM files, transferred " + transferred);
+    }
+}
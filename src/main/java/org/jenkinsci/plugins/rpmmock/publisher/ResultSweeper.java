@@ -0,0 +1,82 @@
+package org.jenkinsci.plugins.rpmmock.publisher;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import jenkins.model.Jenkins;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Recounts blob references from the manifests of all existing builds.
+ *
+ * <p>
+ * {@link ResultCleaner} only sees builds deleted one by one; deleting a job removes its build
+ * directories without notifying it, and by the time {@link ItemListener#onDeleted(Item)} fires
+ * the manifests of those builds are gone, so their references can only be found by counting
+ * what is left. A recount loads every build record of every job, which is expensive on large
+ * controllers, so it runs only within an hour after an item was deleted and otherwise once
+ * a week as a safety net.
+ */
+@Extension
+public class ResultSweeper extends AsyncPeriodicWork {
+
+    /**
+     * Blobs touched within this period are left alone, their manifest may not be attached yet.
+     */
+    private static final long GRACE_PERIOD = HOUR;
+    private static final long SAFETY_NET_PERIOD = 7 * DAY;
+
+    private static volatile boolean itemDeleted;
+    private volatile long lastSweep = System.currentTimeMillis();
+
+    public ResultSweeper() {
+        super("RPM mock result sweeper");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return HOUR;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException, InterruptedException {
+        long now = System.currentTimeMillis();
+        if( !itemDeleted && now - lastSweep < SAFETY_NET_PERIOD ){
+            return;
+        }
+        itemDeleted = false;
+        lastSweep = now;
+
+        Map<String, Integer> references = new HashMap<String, Integer>();
+        for( Job<?, ?> job : Jenkins.getInstance().getAllItems(Job.class) ){
+            for( Run<?, ?> run : job.getBuilds() ){
+                for( ResultAction action : run.getActions(ResultAction.class) ){
+                    for( ResultAction.Entry entry : action.getEntries() ){
+                        Integer count = references.get(entry.getChecksum());
+                        references.put(entry.getChecksum(), count == null ? 1 : count + 1);
+                    }
+                }
+            }
+        }
+
+        BlobStore.get().sweep(references, now - GRACE_PERIOD);
+    }
+
+    /**
+     * Schedules a recount on the next run once a job, or a folder holding jobs, is deleted.
+     */
+    @Extension
+    public static class DeletedItemListener extends ItemListener {
+        @Override
+        public void onDeleted(Item item) {
+            itemDeleted = true;
+        }
+    }
+}
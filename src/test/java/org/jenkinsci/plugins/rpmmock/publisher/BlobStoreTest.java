@@ -0,0 +1,108 @@
+package org.jenkinsci.plugins.rpmmock.publisher;
+
+import hudson.FilePath;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BlobStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File storeDir;
+    private BlobStore store;
+    private File rpm;
+    private String checksum;
+
+    @Before
+    public void initialize() throws Exception {
+        storeDir = folder.newFolder("store");
+        store = new BlobStore(storeDir);
+        rpm = folder.newFile("test-1.0-1.noarch.rpm");
+        FileUtils.writeStringToFile(rpm, "rpm content");
+        checksum = ChecksumCallable.sha256(new ByteArrayInputStream("rpm content".getBytes()));
+    }
+
+    @Test
+    public void testAddTransfersOnlyMissingBlob() throws Exception {
+        assertTrue(store.add(checksum, new FilePath(rpm)));
+        assertFalse(store.add(checksum, new FilePath(rpm)));
+        assertEquals(2, store.getReferences(checksum));
+        assertEquals(checksum, ChecksumCallable.sha256(new GZIPInputStream(new FileInputStream(store.getBlob(checksum)))));
+    }
+
+    @Test
+    public void testReleaseRemovesUnreferencedBlob() throws Exception {
+        store.add(checksum, new FilePath(rpm));
+        store.add(checksum, new FilePath(rpm));
+
+        store.release(checksum);
+        assertTrue(store.contains(checksum));
+
+        store.release(checksum);
+        assertFalse(store.contains(checksum));
+        assertEquals(0, store.getReferences(checksum));
+    }
+
+    @Test
+    public void testReleaseKeepsBlobWithoutCounter() throws Exception {
+        store.add(checksum, new FilePath(rpm));
+        new File(store.getBlob(checksum).getParentFile(), checksum + ".refs").delete();
+
+        store.release(checksum);
+        assertTrue(store.contains(checksum));
+    }
+
+    @Test
+    public void testSweepRecountsReferences() throws Exception {
+        store.add(checksum, new FilePath(rpm));
+        long now = System.currentTimeMillis() + 1000;
+
+        store.sweep(Collections.singletonMap(checksum, 3), now);
+        assertEquals(3, store.getReferences(checksum));
+
+        store.sweep(Collections.<String, Integer>emptyMap(), now);
+        assertFalse(store.contains(checksum));
+    }
+
+    @Test
+    public void testSweepSkipsRecentBlobs() throws Exception {
+        store.add(checksum, new FilePath(rpm));
+
+        store.sweep(Collections.<String, Integer>emptyMap(), System.currentTimeMillis() - 60000);
+        assertTrue(store.contains(checksum));
+        assertEquals(1, store.getReferences(checksum));
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void testAddRejectsInvalidChecksum() throws Exception {
+        try {
+            store.add("../../../" + checksum.substring(9), new FilePath(rpm));
+        } finally {
+            assertEquals(0, storeDir.list().length);
+        }
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void testAddRejectsChecksumMismatch() throws Exception {
+        String other = ChecksumCallable.sha256(new ByteArrayInputStream("other".getBytes()));
+        try {
+            store.add(other, new FilePath(rpm));
+        } finally {
+            assertFalse(store.contains(other));
+        }
+    }
+}
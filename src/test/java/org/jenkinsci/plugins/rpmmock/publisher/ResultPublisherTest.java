@@ -0,0 +1,144 @@
+package org.jenkinsci.plugins.rpmmock.publisher;
+
+import hudson.FilePath;
+import hudson.model.Actionable;
+import hudson.util.StreamBuildListener;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ResultPublisherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private BlobStore store;
+    private FilePath srpmDir;
+    private FilePath rpmDir;
+    private String noarchChecksum;
+
+    @Before
+    public void initialize() throws Exception {
+        store = new BlobStore(folder.newFolder("store"));
+        File workspace = folder.newFolder("workspace");
+        srpmDir = new FilePath(new File(workspace, "SRPMS"));
+        rpmDir = new FilePath(new File(workspace, "RPMS"));
+
+        srpmDir.child("test-1.0-1.src.rpm").write("source", "UTF-8");
+        rpmDir.child("test-1.0-1.x86_64.rpm").write("binary", "UTF-8");
+        rpmDir.child("test-doc-1.0-1.noarch.rpm").write("noarch", "UTF-8");
+        rpmDir.child("build.log").write("log", "UTF-8");
+        rpmDir.child("<img src=x onerror=alert(1)>.rpm").write("script", "UTF-8");
+        noarchChecksum = checksum("noarch");
+    }
+
+    @Test
+    public void testPublishRecordsRpmsOnly() throws Exception {
+        TestBuild build = new TestBuild();
+        newPublisher(store).publish(build, srpmDir, rpmDir, rpmDir.sibling("MISSING"));
+
+        ResultAction action = build.getAction(ResultAction.class);
+        assertEquals(3, action.getEntries().size());
+        assertEquals(checksum("source"), action.getEntry("SRPMS/test-1.0-1.src.rpm").getChecksum());
+        assertEquals(noarchChecksum, action.getEntry("RPMS/test-doc-1.0-1.noarch.rpm").getChecksum());
+        assertNull(action.getEntry("RPMS/build.log"));
+        assertNull(action.getEntry("RPMS/<img src=x onerror=alert(1)>.rpm"));
+        assertFalse(store.contains(checksum("script")));
+        assertEquals(1, store.getReferences(noarchChecksum));
+    }
+
+    @Test
+    public void testPublishWithoutRpmsAttachesNoManifest() throws Exception {
+        TestBuild build = new TestBuild();
+        newPublisher(store).publish(build, rpmDir.sibling("MISSING"));
+
+        assertNull(build.getAction(ResultAction.class));
+    }
+
+    @Test
+    public void testPublishReusesStoredBlobsAcrossBuilds() throws Exception {
+        TestBuild first = new TestBuild(), second = new TestBuild();
+        newPublisher(store).publish(first, srpmDir, rpmDir);
+        newPublisher(store).publish(second, srpmDir, rpmDir);
+
+        assertEquals(2, store.getReferences(noarchChecksum));
+
+        ResultCleaner.release(first.getActions(ResultAction.class), store);
+        assertEquals(1, store.getReferences(noarchChecksum));
+
+        ResultCleaner.release(second.getActions(ResultAction.class), store);
+        assertFalse(store.contains(noarchChecksum));
+    }
+
+    @Test
+    public void testPublishMergesStepsOfOneBuild() throws Exception {
+        TestBuild build = new TestBuild();
+        newPublisher(store).publish(build, srpmDir, rpmDir);
+
+        rpmDir.child("test-1.0-1.x86_64.rpm").write("rebuilt binary", "UTF-8");
+        newPublisher(store).publish(build, srpmDir, rpmDir);
+
+        ResultAction action = build.getAction(ResultAction.class);
+        assertEquals(1, build.getActions(ResultAction.class).size());
+        assertEquals(3, action.getEntries().size());
+        assertEquals(checksum("rebuilt binary"), action.getEntry("RPMS/test-1.0-1.x86_64.rpm").getChecksum());
+        assertEquals(1, store.getReferences(noarchChecksum));
+        assertFalse(store.contains(checksum("binary")));
+    }
+
+    @Test
+    public void testPublishKeepsReferencesTakenBeforeFailure() throws Exception {
+        final String failing = checksum("binary");
+        BlobStore failingStore = new BlobStore(folder.newFolder("failing")) {
+            @Override
+            public boolean add(String checksum, FilePath source) throws IOException, InterruptedException {
+                if( checksum.equals(failing) ){
+                    throw new IOException("transfer failed");
+                }
+                return super.add(checksum, source);
+            }
+        };
+
+        TestBuild build = new TestBuild();
+        try {
+            newPublisher(failingStore).publish(build, srpmDir, rpmDir);
+            fail("Publishing should fail");
+        } catch (IOException e) {
+            assertEquals("transfer failed", e.getMessage());
+        }
+
+        ResultAction action = build.getAction(ResultAction.class);
+        assertNotNull(action.getEntry("SRPMS/test-1.0-1.src.rpm"));
+        assertNull(action.getEntry("RPMS/test-1.0-1.x86_64.rpm"));
+        assertEquals(1, failingStore.getReferences(checksum("source")));
+    }
+
+    private ResultPublisher newPublisher(BlobStore store) {
+        return new ResultPublisher(store, new StreamBuildListener(System.out));
+    }
+
+    private String checksum(String content) throws IOException {
+        return ChecksumCallable.sha256(new ByteArrayInputStream(content.getBytes()));
+    }
+
+    private static class TestBuild extends Actionable {
+        public String getDisplayName() {
+            return "test";
+        }
+
+        public String getSearchUrl() {
+            return "test";
+        }
+    }
+}